@@ -4,7 +4,9 @@ package com.cloudnative.service;
 package com.cloudnative.service;
 
 import org.springframework.stereotype.Service;
+import org.springframework.beans.factory.annotation.Autowired;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.kms.KmsClient;
 import software.amazon.awssdk.services.kms.model.*;
@@ -23,12 +25,17 @@ public class AwsKmsService {
     private KmsClient kmsClient;
     private String keyId = "alias/cloud-native-app-key";
     
+    @Autowired
+    private DownstreamCallLimiter downstreamLimiter;
+    
     @PostConstruct
     public void init() {
         try {
             this.kmsClient = KmsClient.builder()
                 .region(Region.US_EAST_1)
                 .credentialsProvider(DefaultCredentialsProvider.create())
+                .httpClientBuilder(ApacheHttpClient.builder()
+                    .maxConnections(downstreamLimiter.maxConnections("kms")))
                 .build();
             logger.info("AWS KMS client initialized successfully");
         } catch (Exception e) {
@@ -88,6 +95,13 @@ public class AwsKmsService {
         }
     }
     
+    public void checkHealth() {
+        if (kmsClient == null) {
+            throw new IllegalStateException("AWS KMS client not initialized");
+        }
+        kmsClient.describeKey(DescribeKeyRequest.builder().keyId(keyId).build());
+    }
+    
     @PreDestroy
     public void cleanup() {
         if (kmsClient != null) {
@@ -0,0 +1,468 @@
+package com.cloudnative.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.networkfirewall.NetworkFirewallClient;
+import software.amazon.awssdk.services.networkfirewall.model.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maintains the IP blocklist enforced both in-process (via {@link #isBlocked(String)})
+ * and at the network edge through AWS Network Firewall stateful rule groups.
+ *
+ * Manual blocks are permanent; blocks triggered by security events expire after a TTL.
+ * Each kind is kept in its own IP set so the distinction survives a restart. Addresses
+ * in the configured never-block ranges (loopback, private ranges, load balancers) are
+ * never blocked by either.
+ *
+ * The blocklist is sharded by the top {@link #SHARD_BITS} bits of the address into one
+ * rule group per shard. Changes are batched and only shards whose aggregated CIDR lists
+ * differ from what was last pushed get an UpdateRuleGroup call.
+ */
+@Service
+public class AwsNetworkFirewallService implements SecurityEventListener {
+    private static final Logger logger = LoggerFactory.getLogger(AwsNetworkFirewallService.class);
+    private static final String RULE_GROUP_PREFIX = "cloud-native-blocklist";
+    private static final String IP_SET_NAME = "BLOCKED_NET";
+    private static final String AUTO_IP_SET_NAME = "AUTO_BLOCKED_NET";
+    // IP sets may not be empty; the limited broadcast address never appears as a source
+    private static final String EMPTY_SET_PLACEHOLDER = "255.255.255.255/32";
+    private static final int SHARD_BITS = 2;
+    private static final int RULE_GROUP_CAPACITY = 10;
+    private static final long PUBLISH_INTERVAL_MS = 250;
+    private static final long PUSH_INTERVAL_MS = 30000;
+
+    private final IpBlocklistTrie neverBlock = new IpBlocklistTrie();
+    private final long autoBlockTtlMs;
+    private final int minPrefixLength;
+
+    private NetworkFirewallClient networkFirewallClient;
+    // Separate threads so slow or retrying AWS calls never delay publishing to the filter
+    private ScheduledExecutorService publishScheduler;
+    private ScheduledExecutorService pushScheduler;
+
+    // Guarded by blocklist; readers only ever see the published copies
+    private final IpBlocklistTrie blocklist = new IpBlocklistTrie();
+    private final IpBlocklistTrie autoBlocklist = new IpBlocklistTrie();
+    private final Map<Integer, Long> autoBlockExpiry = new HashMap<>();
+    private long nextExpiryAt = Long.MAX_VALUE;
+    private long version;
+    private long publishedVersion;
+    private volatile IpBlocklistTrie published = new IpBlocklistTrie();
+    private volatile IpBlocklistTrie publishedAuto = new IpBlocklistTrie();
+
+    // Only touched from the push thread; a null shard has no rule group yet
+    private final List<Map<String, List<String>>> pushedShards = new ArrayList<>();
+    private long pushedVersion;
+    private boolean loaded;
+
+    @Autowired
+    public AwsNetworkFirewallService(
+            @Value("${network-firewall.never-block:127.0.0.0/8,10.0.0.0/8,172.16.0.0/12,192.168.0.0/16,169.254.0.0/16}") String neverBlockCidrs,
+            @Value("${network-firewall.auto-block-ttl-ms:3600000}") long autoBlockTtlMs,
+            @Value("${network-firewall.min-prefix-length:16}") int minPrefixLength) {
+        this(null, neverBlockCidrs, autoBlockTtlMs, minPrefixLength);
+    }
+
+    // Visible for tests, which supply their own client and drive publish/push directly
+    AwsNetworkFirewallService(NetworkFirewallClient networkFirewallClient, String neverBlockCidrs,
+                              long autoBlockTtlMs, int minPrefixLength) {
+        this.networkFirewallClient = networkFirewallClient;
+        for (int shard = 0; shard < (1 << SHARD_BITS); shard++) {
+            pushedShards.add(null);
+        }
+        for (String cidr : neverBlockCidrs.split(",")) {
+            if (!cidr.isBlank()) {
+                int[] prefix = IpBlocklistTrie.parseCidr(cidr);
+                neverBlock.add(prefix[0], prefix[1]);
+            }
+        }
+        this.autoBlockTtlMs = autoBlockTtlMs;
+        this.minPrefixLength = minPrefixLength;
+    }
+
+    @PostConstruct
+    public void init() {
+        this.publishScheduler = Executors.newSingleThreadScheduledExecutor(daemonThread("network-firewall-blocklist-publish"));
+        publishScheduler.scheduleWithFixedDelay(this::publish, PUBLISH_INTERVAL_MS, PUBLISH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        try {
+            this.networkFirewallClient = NetworkFirewallClient.builder()
+                .region(Region.US_EAST_1)
+                .credentialsProvider(DefaultCredentialsProvider.create())
+                .build();
+            this.pushScheduler = Executors.newSingleThreadScheduledExecutor(daemonThread("network-firewall-blocklist-push"));
+            pushScheduler.scheduleWithFixedDelay(this::pushRuleGroups, 0, PUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            logger.info("AWS Network Firewall client initialized successfully");
+        } catch (Exception e) {
+            logger.error("Failed to initialize AWS Network Firewall client", e);
+        }
+    }
+
+    private static ThreadFactory daemonThread(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public boolean isBlocked(String ip) {
+        long parsed = IpBlocklistTrie.parseAddress(ip);
+        if (parsed < 0) {
+            return false;
+        }
+        int address = (int) parsed;
+        return !neverBlock.contains(address)
+            && (published.contains(address) || publishedAuto.contains(address));
+    }
+
+    /**
+     * Permanently adds the given CIDRs (or bare addresses) to the blocklist. Prefixes
+     * wider than the configured minimum, or covering a never-block range or the
+     * requester's own address, are rejected. All entries are validated before any is
+     * applied. Returns how many changed the blocklist.
+     */
+    public int blockAll(Collection<String> cidrs, String requesterIp) {
+        long requester = IpBlocklistTrie.parseAddress(requesterIp);
+        List<int[]> prefixes = parseAll(cidrs);
+        for (int[] prefix : prefixes) {
+            String cidr = IpBlocklistTrie.formatCidr(prefix[0], prefix[1]);
+            if (prefix[1] < minPrefixLength) {
+                throw new IllegalArgumentException("Prefix wider than /" + minPrefixLength + ": " + cidr);
+            }
+            if (neverBlock.intersects(prefix[0], prefix[1])) {
+                throw new IllegalArgumentException("Prefix overlaps a never-block range: " + cidr);
+            }
+            if (requester >= 0 && covers(prefix, (int) requester)) {
+                throw new IllegalArgumentException("Prefix covers the requester's own address: " + cidr);
+            }
+        }
+
+        int changed = 0;
+        synchronized (blocklist) {
+            for (int[] prefix : prefixes) {
+                if (blocklist.add(prefix[0], prefix[1])) {
+                    changed++;
+                }
+            }
+            if (changed > 0) {
+                version++;
+            }
+        }
+        logger.info("Blocked {} of {} requested CIDRs", changed, prefixes.size());
+        return changed;
+    }
+
+    /**
+     * Removes every blocked address inside the given CIDRs, whether blocked manually
+     * or automatically. Returns how many of them covered something that was blocked.
+     */
+    public int unblockAll(Collection<String> cidrs) {
+        List<int[]> prefixes = parseAll(cidrs);
+        int changed = 0;
+        synchronized (blocklist) {
+            for (int[] prefix : prefixes) {
+                boolean removed = blocklist.remove(prefix[0], prefix[1]);
+                if (autoBlocklist.remove(prefix[0], prefix[1])) {
+                    autoBlockExpiry.keySet().removeIf(address -> covers(prefix, address));
+                    removed = true;
+                }
+                if (removed) {
+                    changed++;
+                }
+            }
+            if (changed > 0) {
+                version++;
+            }
+        }
+        logger.info("Unblocked {} of {} requested CIDRs", changed, prefixes.size());
+        return changed;
+    }
+
+    public List<String> listBlockedCidrs() {
+        List<String> cidrs = new ArrayList<>(published.toCidrs());
+        cidrs.addAll(publishedAuto.toCidrs());
+        return cidrs;
+    }
+
+    @Override
+    public void onSecurityEvent(String eventType, String userId, String sourceIp, boolean critical) {
+        long parsed = IpBlocklistTrie.parseAddress(sourceIp);
+        if (!critical || parsed < 0) {
+            return;
+        }
+        int address = (int) parsed;
+        if (neverBlock.contains(address)) {
+            logger.warn("Not blocking protected source IP {} after {} event", sourceIp, eventType);
+            return;
+        }
+        if (autoBlock(address, System.currentTimeMillis() + autoBlockTtlMs)) {
+            logger.warn("Blocked source IP {} for {}ms after {} event", sourceIp, autoBlockTtlMs, eventType);
+        }
+    }
+
+    private boolean autoBlock(int address, long expiresAt) {
+        synchronized (blocklist) {
+            if (blocklist.contains(address)) {
+                return false;
+            }
+            boolean added = autoBlocklist.add(address, 32);
+            autoBlockExpiry.merge(address, expiresAt, Math::max);
+            nextExpiryAt = Math.min(nextExpiryAt, expiresAt);
+            if (added) {
+                version++;
+            }
+            return added;
+        }
+    }
+
+    private static boolean covers(int[] prefix, int address) {
+        int mask = prefix[1] == 0 ? 0 : -1 << (32 - prefix[1]);
+        return (address & mask) == prefix[0];
+    }
+
+    private List<int[]> parseAll(Collection<String> cidrs) {
+        List<int[]> prefixes = new ArrayList<>(cidrs.size());
+        for (String cidr : cidrs) {
+            prefixes.add(IpBlocklistTrie.parseCidr(cidr));
+        }
+        return prefixes;
+    }
+
+    void publish() {
+        synchronized (blocklist) {
+            expireAutoBlocks(System.currentTimeMillis());
+            if (publishedVersion == version) {
+                return;
+            }
+            published = blocklist.copy();
+            publishedAuto = autoBlocklist.copy();
+            publishedVersion = version;
+        }
+    }
+
+    private void expireAutoBlocks(long now) {
+        if (now < nextExpiryAt) {
+            return;
+        }
+        long next = Long.MAX_VALUE;
+        Iterator<Map.Entry<Integer, Long>> entries = autoBlockExpiry.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Integer, Long> entry = entries.next();
+            if (entry.getValue() <= now) {
+                autoBlocklist.remove(entry.getKey(), 32);
+                entries.remove();
+                version++;
+            } else {
+                next = Math.min(next, entry.getValue());
+            }
+        }
+        nextExpiryAt = next;
+    }
+
+    void pushRuleGroups() {
+        // Never push before the blocklist already enforced in AWS has been merged in,
+        // otherwise a restart would overwrite it with whatever is in memory
+        if (!loaded && !loadRuleGroups()) {
+            return;
+        }
+
+        long snapshotVersion;
+        IpBlocklistTrie manualSnapshot;
+        IpBlocklistTrie autoSnapshot;
+        synchronized (blocklist) {
+            snapshotVersion = version;
+            manualSnapshot = blocklist.copy();
+            autoSnapshot = autoBlocklist.copy();
+        }
+        if (snapshotVersion == pushedVersion && !pushedShards.contains(null)) {
+            return;
+        }
+
+        boolean allPushed = true;
+        for (int shard = 0; shard < pushedShards.size(); shard++) {
+            int shardAddress = shard << (32 - SHARD_BITS);
+            Map<String, List<String>> ipSets = new LinkedHashMap<>();
+            ipSets.put(IP_SET_NAME, manualSnapshot.toCidrs(shardAddress, SHARD_BITS));
+            ipSets.put(AUTO_IP_SET_NAME, autoSnapshot.toCidrs(shardAddress, SHARD_BITS));
+            if (ipSets.equals(pushedShards.get(shard))) {
+                continue;
+            }
+            try {
+                pushShard(shard, ipSets);
+                pushedShards.set(shard, ipSets);
+            } catch (Exception e) {
+                allPushed = false;
+                logger.error("Failed to update blocklist rule group for shard {}", shard, e);
+            }
+        }
+        if (allPushed) {
+            pushedVersion = snapshotVersion;
+        }
+    }
+
+    private boolean loadRuleGroups() {
+        List<Map<String, List<String>>> existingShards = new ArrayList<>();
+        try {
+            for (int shard = 0; shard < pushedShards.size(); shard++) {
+                existingShards.add(loadShard(shard));
+            }
+        } catch (Exception e) {
+            logger.error("Failed to load existing blocklist rule groups, will retry", e);
+            return false;
+        }
+
+        // The original expiry is not stored in AWS, so restored auto-blocks get a fresh TTL
+        long expiresAt = System.currentTimeMillis() + autoBlockTtlMs;
+        int loadedCount = 0;
+        synchronized (blocklist) {
+            for (Map<String, List<String>> ipSets : existingShards) {
+                if (ipSets == null) {
+                    continue;
+                }
+                for (String cidr : ipSets.get(IP_SET_NAME)) {
+                    int[] prefix = IpBlocklistTrie.parseCidr(cidr);
+                    blocklist.add(prefix[0], prefix[1]);
+                    loadedCount++;
+                }
+                // Adjacent auto-blocked addresses are pushed folded into wider prefixes;
+                // expand them back so every address gets its own expiry again
+                for (String cidr : ipSets.get(AUTO_IP_SET_NAME)) {
+                    int[] prefix = IpBlocklistTrie.parseCidr(cidr);
+                    if (prefix[1] < minPrefixLength) {
+                        logger.warn("Ignoring auto-block entry {} wider than /{}", cidr, minPrefixLength);
+                        continue;
+                    }
+                    long first = prefix[0] & 0xFFFFFFFFL;
+                    for (long address = first; address < first + (1L << (32 - prefix[1])); address++) {
+                        if (!neverBlock.contains((int) address)) {
+                            autoBlock((int) address, expiresAt);
+                        }
+                    }
+                    loadedCount++;
+                }
+            }
+            version++;
+        }
+        for (int shard = 0; shard < existingShards.size(); shard++) {
+            pushedShards.set(shard, existingShards.get(shard));
+        }
+        loaded = true;
+        logger.info("Loaded {} blocklist CIDRs from existing rule groups", loadedCount);
+        return true;
+    }
+
+    /**
+     * Returns the CIDRs currently enforced by the shard's rule group, keyed by IP set
+     * name, or null if the rule group does not exist yet.
+     */
+    private Map<String, List<String>> loadShard(int shard) {
+        DescribeRuleGroupResponse existing;
+        try {
+            existing = networkFirewallClient.describeRuleGroup(DescribeRuleGroupRequest.builder()
+                .ruleGroupName(RULE_GROUP_PREFIX + "-" + shard)
+                .type(RuleGroupType.STATEFUL)
+                .build());
+        } catch (ResourceNotFoundException e) {
+            return null;
+        }
+
+        RuleGroup ruleGroup = existing.ruleGroup();
+        Map<String, IPSet> existingSets = ruleGroup == null || ruleGroup.ruleVariables() == null
+            ? Map.of() : ruleGroup.ruleVariables().ipSets();
+        Map<String, List<String>> ipSets = new LinkedHashMap<>();
+        for (String name : List.of(IP_SET_NAME, AUTO_IP_SET_NAME)) {
+            List<String> cidrs = new ArrayList<>();
+            IPSet ipSet = existingSets.get(name);
+            if (ipSet != null) {
+                for (String cidr : ipSet.definition()) {
+                    if (EMPTY_SET_PLACEHOLDER.equals(cidr)) {
+                        continue;
+                    }
+                    try {
+                        IpBlocklistTrie.parseCidr(cidr);
+                        cidrs.add(cidr);
+                    } catch (IllegalArgumentException e) {
+                        logger.warn("Ignoring unparseable entry {} in rule group shard {}", cidr, shard);
+                    }
+                }
+            }
+            ipSets.put(name, cidrs);
+        }
+        return ipSets;
+    }
+
+    private void pushShard(int shard, Map<String, List<String>> cidrsBySet) {
+        String ruleGroupName = RULE_GROUP_PREFIX + "-" + shard;
+        Map<String, IPSet> ipSets = new LinkedHashMap<>();
+        StringBuilder rules = new StringBuilder();
+        int sid = 1000000 + shard * 10;
+        for (Map.Entry<String, List<String>> entry : cidrsBySet.entrySet()) {
+            List<String> cidrs = entry.getValue();
+            ipSets.put(entry.getKey(), IPSet.builder()
+                .definition(cidrs.isEmpty() ? List.of(EMPTY_SET_PLACEHOLDER) : cidrs)
+                .build());
+            rules.append("drop ip $").append(entry.getKey()).append(" any -> any any ")
+                .append("(msg:\"cloud-native-app blocklist\"; sid:").append(sid++).append("; rev:1;)\n");
+        }
+        RuleGroup ruleGroup = RuleGroup.builder()
+            .ruleVariables(RuleVariables.builder().ipSets(ipSets).build())
+            .rulesSource(RulesSource.builder().rulesString(rules.toString()).build())
+            .build();
+        int total = cidrsBySet.values().stream().mapToInt(List::size).sum();
+
+        try {
+            DescribeRuleGroupResponse existing = networkFirewallClient.describeRuleGroup(DescribeRuleGroupRequest.builder()
+                .ruleGroupName(ruleGroupName)
+                .type(RuleGroupType.STATEFUL)
+                .build());
+            networkFirewallClient.updateRuleGroup(UpdateRuleGroupRequest.builder()
+                .ruleGroupName(ruleGroupName)
+                .type(RuleGroupType.STATEFUL)
+                .updateToken(existing.updateToken())
+                .ruleGroup(ruleGroup)
+                .build());
+            logger.info("Updated rule group: {} with {} CIDRs", ruleGroupName, total);
+        } catch (ResourceNotFoundException e) {
+            networkFirewallClient.createRuleGroup(CreateRuleGroupRequest.builder()
+                .ruleGroupName(ruleGroupName)
+                .type(RuleGroupType.STATEFUL)
+                .capacity(RULE_GROUP_CAPACITY)
+                .description("IP blocklist maintained by cloud-native-app")
+                .ruleGroup(ruleGroup)
+                .build());
+            logger.info("Created rule group: {} with {} CIDRs", ruleGroupName, total);
+        }
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        if (publishScheduler != null) {
+            publishScheduler.shutdownNow();
+        }
+        if (pushScheduler != null) {
+            pushScheduler.shutdownNow();
+        }
+        if (networkFirewallClient != null) {
+            networkFirewallClient.close();
+        }
+    }
+}
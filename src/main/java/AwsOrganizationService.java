@@ -1,7 +1,9 @@
 package com.cloudnative.service;
 
 import org.springframework.stereotype.Service;
+import org.springframework.beans.factory.annotation.Autowired;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.organizations.OrganizationsClient;
 import software.amazon.awssdk.services.organizations.model.*;
@@ -18,12 +20,17 @@ public class AwsOrganizationService {
     private static final Logger logger = LoggerFactory.getLogger(AwsOrganizationService.class);
     private OrganizationsClient organizationsClient;
 
+    @Autowired
+    private DownstreamCallLimiter downstreamLimiter;
+
     @PostConstruct
     public void init() {
         try {
             this.organizationsClient = OrganizationsClient.builder()
                 .region(Region.US_EAST_1)
                 .credentialsProvider(DefaultCredentialsProvider.create())
+                .httpClientBuilder(ApacheHttpClient.builder()
+                    .maxConnections(downstreamLimiter.maxConnections("organizations")))
                 .build();
             logger.info("AWS Organizations client initialized successfully");
         } catch (Exception e) {
@@ -83,6 +90,13 @@ public class AwsOrganizationService {
         """;
     }
 
+    public void checkHealth() {
+        if (organizationsClient == null) {
+            throw new IllegalStateException("AWS Organizations client not initialized");
+        }
+        organizationsClient.describeOrganization();
+    }
+
     @PreDestroy
     public void cleanup() {
         if (organizationsClient != null) {
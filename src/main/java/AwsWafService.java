@@ -1,7 +1,9 @@
 package com.cloudnative.service;
 
 import org.springframework.stereotype.Service;
+import org.springframework.beans.factory.annotation.Autowired;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.wafv2.Wafv2Client;
 import software.amazon.awssdk.services.wafv2.model.*;
@@ -20,12 +22,17 @@ public class AwsWafService {
     private static final Logger logger = LoggerFactory.getLogger(AwsWafService.class);
     private Wafv2Client wafClient;
 
+    @Autowired
+    private DownstreamCallLimiter downstreamLimiter;
+
     @PostConstruct
     public void init() {
         try {
             this.wafClient = Wafv2Client.builder()
                 .region(Region.US_EAST_1)
                 .credentialsProvider(DefaultCredentialsProvider.create())
+                .httpClientBuilder(ApacheHttpClient.builder()
+                    .maxConnections(downstreamLimiter.maxConnections("waf")))
                 .build();
             logger.info("AWS WAF client initialized successfully");
         } catch (Exception e) {
@@ -101,6 +108,13 @@ public class AwsWafService {
         }
     }
 
+    public void checkHealth() {
+        if (wafClient == null) {
+            throw new IllegalStateException("AWS WAF client not initialized");
+        }
+        wafClient.listWebACLs(ListWebAcLsRequest.builder().scope(Scope.REGIONAL).limit(1).build());
+    }
+
     @PreDestroy
     public void cleanup() {
         if (wafClient != null) {
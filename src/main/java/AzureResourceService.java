@@ -4,20 +4,45 @@ package com.cloudnative.service;
 package com.cloudnative.service;
 
 import com.azure.core.credential.DefaultAzureCredentialBuilder;
+import com.azure.core.management.exception.ManagementException;
 import com.azure.resourcemanager.AzureResourceManager;
 import com.azure.resourcemanager.resources.models.ResourceGroup;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
 
 import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class AzureResourceService {
     private static final Logger logger = LoggerFactory.getLogger(AzureResourceService.class);
+    private static final int MAX_CONCURRENT_OPERATIONS = 16;
+    private static final int MAX_RETRIES = 4;
+    private static final Duration RETRY_BACKOFF = Duration.ofSeconds(2);
+    private static final Duration MAX_RETRY_BACKOFF = Duration.ofSeconds(60);
     private AzureResourceManager azure;
+    // Every bulk operation from every job runs through this one pipeline, so
+    // MAX_CONCURRENT_OPERATIONS bounds in-flight Azure operations globally, not per request
+    private final Sinks.Many<Mono<Void>> bulkOperations = Sinks.many().unicast().onBackpressureBuffer();
+    
+    public AzureResourceService() {
+        bulkOperations.asFlux()
+            .flatMap(operation -> operation.onErrorResume(e -> Mono.empty()), MAX_CONCURRENT_OPERATIONS)
+            .subscribe();
+    }
     
     @PostConstruct
     public void init() {
@@ -66,4 +91,132 @@ public class AzureResourceService {
             throw new RuntimeException("Failed to delete resource group", e);
         }
     }
+    
+    public void checkHealth() {
+        if (azure == null) {
+            throw new IllegalStateException("Azure Resource Manager not initialized");
+        }
+        azure.resourceGroups().list().stream().findFirst();
+    }
+    
+    /**
+     * Creates the given resource groups concurrently, emitting one result per group as
+     * its long-running operation completes. Failures are reported as results rather
+     * than terminating the stream.
+     */
+    public Flux<BulkOperationResult> createResourceGroups(Collection<String> names, String region) {
+        return runBulk("create", names, name -> azure.resourceGroups()
+            .define(name)
+            .withRegion(region)
+            .createAsync()
+            .then());
+    }
+    
+    /**
+     * Deletes the given resource groups concurrently, emitting one result per group as
+     * its long-running operation completes. Failures are reported as results rather
+     * than terminating the stream.
+     */
+    public Flux<BulkOperationResult> deleteResourceGroups(Collection<String> names) {
+        return runBulk("delete", names, name -> azure.resourceGroups().deleteByNameAsync(name));
+    }
+    
+    Flux<BulkOperationResult> runBulk(String operation, Collection<String> names,
+                                      Function<String, Mono<Void>> action) {
+        // Invalid or repeated names can't reach the SDK; report them instead of failing the
+        // stream, so every requested name gets a result. Azure names are case-insensitive.
+        List<BulkOperationResult> rejected = new ArrayList<>();
+        List<String> valid = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (String name : names) {
+            if (name == null || name.isBlank()) {
+                rejected.add(new BulkOperationResult(name, operation, false, "Resource group name is blank", 0));
+            } else if (!seen.add(name.toLowerCase(Locale.ROOT))) {
+                rejected.add(new BulkOperationResult(name, operation, false, "Duplicate resource group name", 0));
+            } else {
+                valid.add(name);
+            }
+        }
+        
+        return Flux.fromIterable(rejected).concatWith(Flux.fromIterable(valid)
+            .flatMap(name -> throttled(Mono.defer(() -> {
+                long startTime = System.currentTimeMillis();
+                return Mono.defer(() -> action.apply(name))
+                    .retryWhen(Retry.backoff(MAX_RETRIES, RETRY_BACKOFF)
+                        .maxBackoff(MAX_RETRY_BACKOFF)
+                        .filter(AzureResourceService::isRetryable)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                    .then(Mono.fromCallable(() -> {
+                        logger.info("Bulk {} of resource group {} succeeded", operation, name);
+                        return new BulkOperationResult(name, operation, true, null,
+                            System.currentTimeMillis() - startTime);
+                    }))
+                    .onErrorResume(e -> {
+                        logger.error("Bulk {} of resource group {} failed", operation, name, e);
+                        return Mono.just(new BulkOperationResult(name, operation, false,
+                            e.getMessage(), System.currentTimeMillis() - startTime));
+                    });
+            }))));
+    }
+    
+    /**
+     * Queues the operation on the shared bulk pipeline and completes with its result
+     * once the pipeline has run it.
+     */
+    private <T> Mono<T> throttled(Mono<T> operation) {
+        return Mono.create(sink -> {
+            Mono<Void> queued = operation
+                .doOnNext(sink::success)
+                .doOnError(sink::error)
+                .then();
+            // The sink accepts one emitter at a time; concurrent jobs take turns
+            synchronized (bulkOperations) {
+                bulkOperations.emitNext(queued, Sinks.EmitFailureHandler.FAIL_FAST);
+            }
+        });
+    }
+    
+    private static boolean isRetryable(Throwable e) {
+        if (!(e instanceof ManagementException) || ((ManagementException) e).getResponse() == null) {
+            return false;
+        }
+        int status = ((ManagementException) e).getResponse().getStatusCode();
+        return status == 409 || status == 429 || status >= 500;
+    }
+    
+    public static final class BulkOperationResult {
+        private final String resourceGroup;
+        private final String operation;
+        private final boolean success;
+        private final String error;
+        private final long durationMs;
+        
+        BulkOperationResult(String resourceGroup, String operation, boolean success, String error, long durationMs) {
+            this.resourceGroup = resourceGroup;
+            this.operation = operation;
+            this.success = success;
+            this.error = error;
+            this.durationMs = durationMs;
+        }
+        
+        public String getResourceGroup() {
+            return resourceGroup;
+        }
+        
+        public String getOperation() {
+            return operation;
+        }
+        
+        public boolean isSuccess() {
+            return success;
+        }
+        
+        public String getError() {
+            return error;
+        }
+        
+        public long getDurationMs() {
+            return durationMs;
+        }
+    }
 }
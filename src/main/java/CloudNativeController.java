@@ -3,23 +3,40 @@ package com.cloudnative.controller;
 
 import com.cloudnative.service.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.validation.annotation.Validated;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Size;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
 
 @RestController
 @RequestMapping("/api")
 @Validated
 public class CloudNativeController {
     private static final Logger logger = LoggerFactory.getLogger(CloudNativeController.class);
+    // Whole statements rather than bare keywords, so words like "dropdown" don't trip it
+    private static final Pattern SQL_INJECTION_PATTERN = Pattern.compile(
+        "\\b(drop\\s+(table|database)|delete\\s+from|union(\\s+all)?\\s+select)\\b",
+        Pattern.CASE_INSENSITIVE);
     
     @Autowired
     private AwsKmsService kmsService;
@@ -33,22 +50,29 @@ public class CloudNativeController {
     @Autowired
     private AwsWafService wafService;
     
+    @Autowired
+    private AwsNetworkFirewallService networkFirewallService;
+    
     @Autowired
     private MonitoringService monitoringService;
     
+    @Value("${azure.bulk-stream-timeout-ms:3600000}")
+    private long bulkStreamTimeoutMs;
+    
+    @Autowired
+    private DownstreamCallLimiter downstreamLimiter;
+    
+    @Autowired
+    private DependencyHealthService healthService;
+    
     @GetMapping("/health")
-    public ResponseEntity<Map<String, String>> health() {
-        long startTime = System.currentTimeMillis();
-        
-        Map<String, String> response = new HashMap<>();
-        response.put("status", "UP");
-        response.put("timestamp", String.valueOf(System.currentTimeMillis()));
-        response.put("service", "cloud-native-app");
-        
-        long duration = System.currentTimeMillis() - startTime;
-        monitoringService.logPerformanceMetrics("health_check", duration, true);
-        
-        return ResponseEntity.ok(response);
+    public ResponseEntity<byte[]> health() {
+        // Precomputed by background probes; see DependencyHealthService. /api/health is
+        // public, so only authenticated callers see per-dependency status and latency
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        boolean authenticated = auth != null && auth.isAuthenticated()
+            && !(auth instanceof AnonymousAuthenticationToken);
+        return healthService.healthResponse(authenticated);
     }
     
     @PostMapping("/encrypt")
@@ -57,7 +81,7 @@ public class CloudNativeController {
         long startTime = System.currentTimeMillis();
         
         try {
-            String encryptedData = kmsService.encryptData(data);
+            String encryptedData = downstreamLimiter.call("kms", () -> kmsService.encryptData(data));
             
             Map<String, String> response = new HashMap<>();
             response.put("encryptedData", encryptedData);
@@ -68,6 +92,8 @@ public class CloudNativeController {
             monitoringService.logSecurityEvent("DATA_ENCRYPTED", "system", "Data encrypted using AWS KMS");
             
             return ResponseEntity.ok(response);
+        } catch (DownstreamSaturatedException e) {
+            return downstreamSaturated("encrypt_data", startTime);
         } catch (Exception e) {
             long duration = System.currentTimeMillis() - startTime;
             monitoringService.logPerformanceMetrics("encrypt_data", duration, false);
@@ -86,7 +112,7 @@ public class CloudNativeController {
         long startTime = System.currentTimeMillis();
         
         try {
-            String decryptedData = kmsService.decryptData(encryptedData);
+            String decryptedData = downstreamLimiter.call("kms", () -> kmsService.decryptData(encryptedData));
             
             Map<String, String> response = new HashMap<>();
             response.put("decryptedData", decryptedData);
@@ -97,6 +123,8 @@ public class CloudNativeController {
             monitoringService.logSecurityEvent("DATA_DECRYPTED", "system", "Data decrypted using AWS KMS");
             
             return ResponseEntity.ok(response);
+        } catch (DownstreamSaturatedException e) {
+            return downstreamSaturated("decrypt_data", startTime);
         } catch (Exception e) {
             long duration = System.currentTimeMillis() - startTime;
             monitoringService.logPerformanceMetrics("decrypt_data", duration, false);
@@ -114,7 +142,7 @@ public class CloudNativeController {
         long startTime = System.currentTimeMillis();
         
         try {
-            List<String> resourceGroups = azureService.listResourceGroups();
+            List<String> resourceGroups = downstreamLimiter.call("azure", azureService::listResourceGroups);
             
             long duration = System.currentTimeMillis() - startTime;
             monitoringService.logPerformanceMetrics("list_azure_resources", duration, true);
@@ -124,6 +152,8 @@ public class CloudNativeController {
             monitoringService.logApplicationEvent("AZURE_RESOURCES_LISTED", eventData);
             
             return ResponseEntity.ok(resourceGroups);
+        } catch (DownstreamSaturatedException e) {
+            return downstreamSaturated("list_azure_resources", startTime);
         } catch (Exception e) {
             long duration = System.currentTimeMillis() - startTime;
             monitoringService.logPerformanceMetrics("list_azure_resources", duration, false);
@@ -132,12 +162,69 @@ public class CloudNativeController {
         }
     }
     
+    @PostMapping(value = "/azure/resource-groups/bulk-create", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter bulkCreateAzureResourceGroups(
+            @RequestParam @NotBlank String region,
+            @RequestBody @NotEmpty @Size(max = 1000) List<@NotBlank String> names) {
+        return streamBulkOperation("bulk_create_azure_resource_groups",
+            azureService.createResourceGroups(names, region));
+    }
+    
+    @PostMapping(value = "/azure/resource-groups/bulk-delete", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter bulkDeleteAzureResourceGroups(
+            @RequestBody @NotEmpty @Size(max = 1000) List<@NotBlank String> names) {
+        return streamBulkOperation("bulk_delete_azure_resource_groups",
+            azureService.deleteResourceGroups(names));
+    }
+    
+    /**
+     * Runs the bulk job on a server-side subscription and mirrors its results to the
+     * caller. The job keeps going if the client disconnects or the stream times out.
+     */
+    private SseEmitter streamBulkOperation(
+            String operation, Flux<AzureResourceService.BulkOperationResult> results) {
+        long startTime = System.currentTimeMillis();
+        int[] counts = new int[2];
+        SseEmitter emitter = new SseEmitter(bulkStreamTimeoutMs);
+        AtomicBoolean clientGone = new AtomicBoolean();
+        emitter.onTimeout(() -> clientGone.set(true));
+        emitter.onError(e -> clientGone.set(true));
+        
+        results.subscribe(
+            result -> {
+                counts[result.isSuccess() ? 0 : 1]++;
+                if (!clientGone.get()) {
+                    try {
+                        emitter.send(result);
+                    } catch (Exception e) {
+                        clientGone.set(true);
+                        logger.info("Client left {} stream, job continues", operation);
+                    }
+                }
+            },
+            e -> {
+                logger.error("Bulk operation {} failed", operation, e);
+                emitter.completeWithError(e);
+            },
+            () -> {
+                long duration = System.currentTimeMillis() - startTime;
+                monitoringService.logPerformanceMetrics(operation, duration, counts[1] == 0);
+                
+                Map<String, Object> eventData = new HashMap<>();
+                eventData.put("succeeded", counts[0]);
+                eventData.put("failed", counts[1]);
+                monitoringService.logApplicationEvent(operation.toUpperCase(), eventData);
+                emitter.complete();
+            });
+        return emitter;
+    }
+    
     @GetMapping("/aws/accounts")
     public ResponseEntity<List<String>> listAwsAccounts() {
         long startTime = System.currentTimeMillis();
         
         try {
-            List<String> accounts = organizationService.listAccounts();
+            List<String> accounts = downstreamLimiter.call("organizations", organizationService::listAccounts);
             
             long duration = System.currentTimeMillis() - startTime;
             monitoringService.logPerformanceMetrics("list_aws_accounts", duration, true);
@@ -147,6 +234,8 @@ public class CloudNativeController {
             monitoringService.logApplicationEvent("AWS_ACCOUNTS_LISTED", eventData);
             
             return ResponseEntity.ok(accounts);
+        } catch (DownstreamSaturatedException e) {
+            return downstreamSaturated("list_aws_accounts", startTime);
         } catch (Exception e) {
             long duration = System.currentTimeMillis() - startTime;
             monitoringService.logPerformanceMetrics("list_aws_accounts", duration, false);
@@ -161,7 +250,7 @@ public class CloudNativeController {
         long startTime = System.currentTimeMillis();
         
         try {
-            wafService.createWebACL(webAclName);
+            downstreamLimiter.run("waf", () -> wafService.createWebACL(webAclName));
             
             Map<String, String> response = new HashMap<>();
             response.put("message", "Web ACL created successfully");
@@ -173,6 +262,8 @@ public class CloudNativeController {
             monitoringService.logSecurityEvent("WAF_CREATED", "system", "Web ACL created: " + webAclName);
             
             return ResponseEntity.ok(response);
+        } catch (DownstreamSaturatedException e) {
+            return downstreamSaturated("create_web_acl", startTime);
         } catch (Exception e) {
             long duration = System.currentTimeMillis() - startTime;
             monitoringService.logPerformanceMetrics("create_web_acl", duration, false);
@@ -185,16 +276,81 @@ public class CloudNativeController {
         }
     }
     
+    private <T> ResponseEntity<T> downstreamSaturated(String operation, long startTime) {
+        // Load shedding: no security event, and tell the caller to come back shortly
+        long duration = System.currentTimeMillis() - startTime;
+        monitoringService.logPerformanceMetrics(operation + "_shed", duration, false);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .build();
+    }
+    
+    @PostMapping("/security/blocklist")
+    public ResponseEntity<Map<String, Object>> blockIps(
+            @RequestBody @NotEmpty @Size(max = 10000) List<String> cidrs, HttpServletRequest request) {
+        long startTime = System.currentTimeMillis();
+        
+        try {
+            int changed = networkFirewallService.blockAll(cidrs, request.getRemoteAddr());
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("requested", cidrs.size());
+            response.put("changed", changed);
+            response.put("status", "success");
+            
+            long duration = System.currentTimeMillis() - startTime;
+            monitoringService.logPerformanceMetrics("block_ips", duration, true);
+            monitoringService.logSecurityEvent("IPS_BLOCKED", "system", changed + " blocklist entries added");
+            
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            long duration = System.currentTimeMillis() - startTime;
+            monitoringService.logPerformanceMetrics("block_ips", duration, false);
+            
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            errorResponse.put("status", "error");
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+    
+    @PostMapping("/security/blocklist/remove")
+    public ResponseEntity<Map<String, Object>> unblockIps(
+            @RequestBody @NotEmpty @Size(max = 10000) List<String> cidrs) {
+        long startTime = System.currentTimeMillis();
+        
+        try {
+            int changed = networkFirewallService.unblockAll(cidrs);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("requested", cidrs.size());
+            response.put("changed", changed);
+            response.put("status", "success");
+            
+            long duration = System.currentTimeMillis() - startTime;
+            monitoringService.logPerformanceMetrics("unblock_ips", duration, true);
+            monitoringService.logSecurityEvent("IPS_UNBLOCKED", "system", changed + " blocklist entries removed");
+            
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            long duration = System.currentTimeMillis() - startTime;
+            monitoringService.logPerformanceMetrics("unblock_ips", duration, false);
+            
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            errorResponse.put("status", "error");
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+    
     @PostMapping("/security/test-injection")
     public ResponseEntity<Map<String, String>> testSqlInjection(
-            @RequestParam String query) {
+            @RequestParam String query, HttpServletRequest request) {
         // This endpoint demonstrates SQL injection detection
-        if (query.toLowerCase().contains("drop") || 
-            query.toLowerCase().contains("delete") || 
-            query.toLowerCase().contains("union")) {
+        if (SQL_INJECTION_PATTERN.matcher(query).find()) {
             
             monitoringService.logSecurityEvent("SQL_INJECTION_ATTEMPT", "unknown", 
-                "Malicious query detected: " + query);
+                "Malicious query detected: " + query, request.getRemoteAddr());
             
             Map<String, String> response = new HashMap<>();
             response.put("error", "Malicious query detected");
@@ -0,0 +1,298 @@
+package com.cloudnative.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Probes each cloud dependency in the background and keeps the latest results in an
+ * immutable snapshot, including the ready-to-send /api/health responses. Serving a
+ * health check is a single volatile read.
+ *
+ * Whether /api/health ever answers 503 is set by health.fail-on: "never" (the default,
+ * so liveness does not hinge on third-party APIs), "all-down" or "any-down". A
+ * dependency that has not been probed yet is UNKNOWN, which never counts as down.
+ */
+@Service
+public class DependencyHealthService {
+    private static final Logger logger = LoggerFactory.getLogger(DependencyHealthService.class);
+    private static final double JITTER = 0.2;
+    private static final long MAX_INITIAL_DELAY_MS = 1000;
+    private static final int STALE_AFTER_INTERVALS = 3;
+
+    private final Map<String, Runnable> probes = new LinkedHashMap<>();
+    // Set while a probe's task is actually executing; cleared by the task itself, since a
+    // cancelled Future reports done even while its thread is still stuck in a socket read
+    private final Map<String, AtomicBoolean> probeRunning = new ConcurrentHashMap<>();
+    private final AtomicReference<HealthSnapshot> snapshot = new AtomicReference<>();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MonitoringService monitoringService;
+    private final long probeIntervalMs;
+    private final long probeTimeoutMs;
+    private final String failOn;
+    private ScheduledExecutorService scheduler;
+    private ExecutorService probeExecutor;
+
+    public DependencyHealthService(AwsKmsService kmsService,
+                                   AwsOrganizationService organizationService,
+                                   AwsWafService wafService,
+                                   AzureResourceService azureService,
+                                   MonitoringService monitoringService,
+                                   @Value("${health.probe-interval-ms:30000}") long probeIntervalMs,
+                                   @Value("${health.probe-timeout-ms:5000}") long probeTimeoutMs,
+                                   @Value("${health.fail-on:never}") String failOn) {
+        this.monitoringService = monitoringService;
+        this.probeIntervalMs = probeIntervalMs;
+        this.probeTimeoutMs = probeTimeoutMs;
+        this.failOn = failOn;
+        probes.put("kms", kmsService::checkHealth);
+        probes.put("organizations", organizationService::checkHealth);
+        probes.put("waf", wafService::checkHealth);
+        probes.put("azure", azureService::checkHealth);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!failOn.equals("never") && !failOn.equals("all-down") && !failOn.equals("any-down")) {
+            throw new IllegalArgumentException("health.fail-on must be never, all-down or any-down: " + failOn);
+        }
+        long now = System.currentTimeMillis();
+        Map<String, DependencyHealth> dependencies = new LinkedHashMap<>();
+        for (String name : probes.keySet()) {
+            dependencies.put(name, new DependencyHealth("UNKNOWN", now, 0));
+        }
+        snapshot.set(buildSnapshot(dependencies));
+
+        this.scheduler = Executors.newScheduledThreadPool(probes.size(), namedThreads("dependency-health-scheduler-"));
+        this.probeExecutor = Executors.newCachedThreadPool(namedThreads("dependency-health-probe-"));
+        for (String name : probes.keySet()) {
+            scheduler.schedule(() -> probe(name),
+                ThreadLocalRandom.current().nextLong(MAX_INITIAL_DELAY_MS), TimeUnit.MILLISECONDS);
+        }
+        scheduler.scheduleAtFixedRate(this::markStaleResults, probeIntervalMs, probeIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the precomputed response; per-dependency detail only when requested,
+     * since /api/health is open to anonymous callers.
+     */
+    public ResponseEntity<byte[]> healthResponse(boolean detailed) {
+        HealthSnapshot current = snapshot.get();
+        return detailed ? current.getDetailedResponse() : current.getSummaryResponse();
+    }
+
+    private void probe(String name) {
+        try {
+            // A probe still stuck from last time is down; don't pile another one on top of it,
+            // which also keeps the probe pool at one thread per dependency
+            AtomicBoolean running = probeRunning.computeIfAbsent(name, key -> new AtomicBoolean());
+            if (!running.compareAndSet(false, true)) {
+                logger.warn("Health probe for {} still running after {}ms", name, probeTimeoutMs);
+                record(name, "DOWN", probeTimeoutMs);
+                return;
+            }
+
+            long startTime = System.currentTimeMillis();
+            Runnable check = probes.get(name);
+            Future<?> future;
+            try {
+                future = probeExecutor.submit(() -> {
+                    try {
+                        check.run();
+                    } finally {
+                        running.set(false);
+                    }
+                });
+            } catch (RuntimeException e) {
+                running.set(false);
+                throw e;
+            }
+            String status;
+            try {
+                future.get(probeTimeoutMs, TimeUnit.MILLISECONDS);
+                status = "UP";
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                status = "DOWN";
+                logger.warn("Health probe for {} timed out after {}ms", name, probeTimeoutMs);
+            } catch (Exception e) {
+                status = "DOWN";
+                logger.warn("Health probe for {} failed: {}", name, e.toString());
+            }
+            record(name, status, System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            logger.error("Health probe for {} could not run", name, e);
+        } finally {
+            if (!scheduler.isShutdown()) {
+                scheduler.schedule(() -> probe(name), jitteredInterval(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void markStaleResults() {
+        long staleBefore = System.currentTimeMillis() - STALE_AFTER_INTERVALS * probeIntervalMs - probeTimeoutMs;
+        for (Map.Entry<String, DependencyHealth> entry : snapshot.get().getDependencies().entrySet()) {
+            DependencyHealth health = entry.getValue();
+            if (!health.getStatus().equals("DOWN") && health.checkedAtMillis < staleBefore) {
+                logger.warn("Health result for {} is stale, last checked {}", entry.getKey(), health.getCheckedAt());
+                record(entry.getKey(), "DOWN", health.getLatencyMs());
+            }
+        }
+    }
+
+    private void record(String name, String status, long latencyMs) {
+        DependencyHealth result = new DependencyHealth(status, System.currentTimeMillis(), latencyMs);
+        HealthSnapshot previous = snapshot.getAndUpdate(current -> {
+            Map<String, DependencyHealth> dependencies = new LinkedHashMap<>(current.getDependencies());
+            dependencies.put(name, result);
+            return buildSnapshot(dependencies);
+        });
+        if (!status.equals(previous.getDependencies().get(name).getStatus())) {
+            Map<String, Object> eventData = new LinkedHashMap<>();
+            eventData.put("dependency", name);
+            eventData.put("status", status);
+            monitoringService.logApplicationEvent("DEPENDENCY_HEALTH_CHANGED", eventData);
+        }
+    }
+
+    private long jitteredInterval() {
+        double factor = 1 + ThreadLocalRandom.current().nextDouble(-JITTER, JITTER);
+        return (long) (probeIntervalMs * factor);
+    }
+
+    private HealthSnapshot buildSnapshot(Map<String, DependencyHealth> dependencies) {
+        long up = dependencies.values().stream().filter(d -> d.getStatus().equals("UP")).count();
+        long down = dependencies.values().stream().filter(d -> d.getStatus().equals("DOWN")).count();
+        String status;
+        if (up == dependencies.size()) {
+            status = "UP";
+        } else if (down == dependencies.size()) {
+            status = "DOWN";
+        } else if (down > 0) {
+            status = "DEGRADED";
+        } else {
+            status = "UNKNOWN";
+        }
+        boolean failing = (failOn.equals("all-down") && down == dependencies.size())
+            || (failOn.equals("any-down") && down > 0);
+        HttpStatus httpStatus = failing ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.OK;
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", status);
+        body.put("service", "cloud-native-app");
+        ResponseEntity<byte[]> summary = toResponse(body, status, httpStatus);
+        body.put("dependencies", dependencies);
+        ResponseEntity<byte[]> detailed = toResponse(body, status, httpStatus);
+
+        return new HealthSnapshot(Collections.unmodifiableMap(dependencies), summary, detailed);
+    }
+
+    private ResponseEntity<byte[]> toResponse(Map<String, Object> body, String status, HttpStatus httpStatus) {
+        byte[] bytes;
+        try {
+            bytes = objectMapper.writeValueAsBytes(body);
+        } catch (Exception e) {
+            logger.error("Failed to serialize health snapshot", e);
+            bytes = ("{\"status\":\"" + status + "\"}").getBytes(StandardCharsets.UTF_8);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setContentLength(bytes.length);
+        headers.setCacheControl("no-store");
+        return new ResponseEntity<>(bytes, HttpHeaders.readOnlyHttpHeaders(headers), httpStatus);
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (probeExecutor != null) {
+            probeExecutor.shutdownNow();
+        }
+    }
+
+    private static final class HealthSnapshot {
+        private final Map<String, DependencyHealth> dependencies;
+        private final ResponseEntity<byte[]> summaryResponse;
+        private final ResponseEntity<byte[]> detailedResponse;
+
+        HealthSnapshot(Map<String, DependencyHealth> dependencies,
+                       ResponseEntity<byte[]> summaryResponse, ResponseEntity<byte[]> detailedResponse) {
+            this.dependencies = dependencies;
+            this.summaryResponse = summaryResponse;
+            this.detailedResponse = detailedResponse;
+        }
+
+        Map<String, DependencyHealth> getDependencies() {
+            return dependencies;
+        }
+
+        ResponseEntity<byte[]> getSummaryResponse() {
+            return summaryResponse;
+        }
+
+        ResponseEntity<byte[]> getDetailedResponse() {
+            return detailedResponse;
+        }
+    }
+
+    public static final class DependencyHealth {
+        private final String status;
+        private final long checkedAtMillis;
+        private final long latencyMs;
+
+        DependencyHealth(String status, long checkedAtMillis, long latencyMs) {
+            this.status = status;
+            this.checkedAtMillis = checkedAtMillis;
+            this.latencyMs = latencyMs;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public String getCheckedAt() {
+            return Instant.ofEpochMilli(checkedAtMillis).toString();
+        }
+
+        public long getLatencyMs() {
+            return latencyMs;
+        }
+    }
+}
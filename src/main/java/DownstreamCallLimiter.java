@@ -0,0 +1,81 @@
+package com.cloudnative.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.http.SdkHttpConfigurationOption;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Caps in-flight blocking calls per downstream service, so that cheap virtual request
+ * threads cannot pile unbounded load onto KMS, Organizations, WAF or Azure. Caps come
+ * from downstream.max-concurrent-calls.&lt;name&gt;, falling back to the "default" entry.
+ *
+ * Only enforced in the virtual execution mode; in platform mode Tomcat's worker pool
+ * already bounds concurrency and calls pass straight through.
+ */
+@Service
+public class DownstreamCallLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(DownstreamCallLimiter.class);
+    private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+    private final Environment environment;
+    private final boolean enabled;
+    private final int defaultMaxConcurrentCalls;
+    private final long acquireTimeoutMs;
+
+    public DownstreamCallLimiter(Environment environment) {
+        this.environment = environment;
+        this.enabled = "virtual".equals(environment.getProperty("server.execution-mode", "platform"));
+        this.defaultMaxConcurrentCalls = environment.getProperty(
+            "downstream.max-concurrent-calls.default", Integer.class, 200);
+        this.acquireTimeoutMs = environment.getProperty("downstream.acquire-timeout-ms", Long.class, 30000L);
+    }
+
+    public int maxConcurrentCalls(String downstream) {
+        return environment.getProperty(
+            "downstream.max-concurrent-calls." + downstream, Integer.class, defaultMaxConcurrentCalls);
+    }
+
+    /**
+     * Connection pool size for the downstream's SDK client: the SDK default in platform
+     * mode, and in virtual mode large enough for the cap but never below that default.
+     */
+    public int maxConnections(String downstream) {
+        int sdkDefault = SdkHttpConfigurationOption.GLOBAL_HTTP_DEFAULTS.get(SdkHttpConfigurationOption.MAX_CONNECTIONS);
+        return enabled ? Math.max(maxConcurrentCalls(downstream), sdkDefault) : sdkDefault;
+    }
+
+    public <T> T call(String downstream, Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        Semaphore semaphore = permits.computeIfAbsent(downstream, name -> new Semaphore(maxConcurrentCalls(name)));
+        try {
+            if (!semaphore.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                logger.warn("Rejected call to {}: {} calls already in flight", downstream, maxConcurrentCalls(downstream));
+                throw new DownstreamSaturatedException(downstream);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DownstreamSaturatedException(downstream);
+        }
+        try {
+            return call.get();
+        } finally {
+            semaphore.release();
+        }
+    }
+
+    public void run(String downstream, Runnable call) {
+        call(downstream, () -> {
+            call.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,11 @@
+package com.cloudnative.service;
+
+/**
+ * Thrown when a downstream call is shed because its in-flight cap stayed full for the
+ * whole acquire timeout. This is load shedding, not a failure of the downstream itself.
+ */
+public class DownstreamSaturatedException extends RuntimeException {
+    public DownstreamSaturatedException(String downstream) {
+        super("Too many in-flight calls to " + downstream);
+    }
+}
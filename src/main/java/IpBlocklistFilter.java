@@ -0,0 +1,58 @@
+package com.cloudnative.controller;
+
+import com.cloudnative.service.AwsNetworkFirewallService;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Rejects requests from blocklisted IPs before they reach security or the controller.
+ * Only health checks are exempt. The blocklist admin endpoints are filtered too, so a
+ * blocked client cannot lift its own block; operators are covered by the never-block
+ * ranges instead. The client address comes from {@code getRemoteAddr()}, which
+ * Tomcat's remote IP valve resolves from X-Forwarded-For when the peer is a trusted
+ * proxy (server.forward-headers-strategy=native).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class IpBlocklistFilter extends OncePerRequestFilter {
+    private static final byte[] BLOCKED_RESPONSE =
+        "{\"error\":\"Access denied\",\"status\":\"blocked\"}".getBytes(StandardCharsets.UTF_8);
+
+    private static final String HEALTH_PATH = "/api/health";
+
+    private final AwsNetworkFirewallService networkFirewallService;
+
+    public IpBlocklistFilter(AwsNetworkFirewallService networkFirewallService) {
+        this.networkFirewallService = networkFirewallService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.equals(HEALTH_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (networkFirewallService.isBlocked(request.getRemoteAddr())) {
+            response.setStatus(HttpStatus.FORBIDDEN.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(BLOCKED_RESPONSE.length);
+            response.getOutputStream().write(BLOCKED_RESPONSE);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,323 @@
+package com.cloudnative.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Binary radix trie of blocked IPv4 prefixes.
+ *
+ * Nodes live in parallel int arrays rather than as objects, so a large blocklist
+ * costs a few ints per node. Inserting a prefix drops everything it covers and
+ * folds sibling prefixes into their parent, so the trie always holds the minimal
+ * set of CIDRs describing the blocked address space. Lookups walk at most one
+ * node per prefix bit.
+ *
+ * Not thread-safe; callers mutate one instance and publish {@link #copy()}s to readers.
+ */
+public final class IpBlocklistTrie {
+    private static final int NONE = 0; // the root (index 0) is never anyone's child
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] zero;
+    private int[] one;
+    private boolean[] blocked;
+    private int nextNode = 1;
+    private int freeHead = NONE;
+
+    public IpBlocklistTrie() {
+        this.zero = new int[INITIAL_CAPACITY];
+        this.one = new int[INITIAL_CAPACITY];
+        this.blocked = new boolean[INITIAL_CAPACITY];
+    }
+
+    private IpBlocklistTrie(IpBlocklistTrie source) {
+        this.zero = Arrays.copyOf(source.zero, source.nextNode);
+        this.one = Arrays.copyOf(source.one, source.nextNode);
+        this.blocked = Arrays.copyOf(source.blocked, source.nextNode);
+        this.nextNode = source.nextNode;
+        this.freeHead = source.freeHead;
+    }
+
+    public IpBlocklistTrie copy() {
+        return new IpBlocklistTrie(this);
+    }
+
+    /**
+     * Blocks the given prefix. Returns false if it was already covered.
+     */
+    public boolean add(int address, int prefixLength) {
+        int[] path = new int[prefixLength];
+        int node = 0;
+        for (int depth = 0; depth < prefixLength; depth++) {
+            if (blocked[node]) {
+                return false;
+            }
+            int child = child(node, bit(address, depth));
+            if (child == NONE) {
+                child = allocate(false);
+                setChild(node, bit(address, depth), child);
+            }
+            path[depth] = node;
+            node = child;
+        }
+        if (blocked[node]) {
+            return false;
+        }
+        releaseChildren(node);
+        blocked[node] = true;
+
+        // Fold adjacent prefixes: two blocked siblings become their blocked parent
+        for (int depth = prefixLength - 1; depth >= 0; depth--) {
+            int parent = path[depth];
+            int left = zero[parent];
+            int right = one[parent];
+            if (left == NONE || right == NONE || !blocked[left] || !blocked[right]) {
+                break;
+            }
+            releaseChildren(parent);
+            blocked[parent] = true;
+        }
+        return true;
+    }
+
+    /**
+     * Unblocks every address inside the given prefix, splitting any wider blocked
+     * prefix that contains it. Returns false if nothing inside it was blocked.
+     */
+    public boolean remove(int address, int prefixLength) {
+        int[] path = new int[prefixLength];
+        int node = 0;
+        for (int depth = 0; depth < prefixLength; depth++) {
+            if (blocked[node]) {
+                int left = allocate(true);
+                int right = allocate(true);
+                blocked[node] = false;
+                zero[node] = left;
+                one[node] = right;
+            }
+            int child = child(node, bit(address, depth));
+            if (child == NONE) {
+                return false;
+            }
+            path[depth] = node;
+            node = child;
+        }
+        if (!blocked[node] && isLeaf(node)) {
+            return false;
+        }
+        releaseChildren(node);
+        blocked[node] = false;
+
+        // Prune ancestors that no longer lead to any blocked prefix
+        for (int depth = prefixLength - 1; depth >= 0 && node != 0 && isLeaf(node) && !blocked[node]; depth--) {
+            int parent = path[depth];
+            setChild(parent, bit(address, depth), NONE);
+            release(node);
+            node = parent;
+        }
+        return true;
+    }
+
+    public boolean contains(int address) {
+        int node = 0;
+        for (int depth = 0; ; depth++) {
+            if (blocked[node]) {
+                return true;
+            }
+            if (depth == 32) {
+                return false;
+            }
+            node = child(node, bit(address, depth));
+            if (node == NONE) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Returns true if any blocked address falls inside the given prefix.
+     */
+    public boolean intersects(int address, int prefixLength) {
+        int node = 0;
+        for (int depth = 0; depth < prefixLength; depth++) {
+            if (blocked[node]) {
+                return true;
+            }
+            node = child(node, bit(address, depth));
+            if (node == NONE) {
+                return false;
+            }
+        }
+        return blocked[node] || !isLeaf(node);
+    }
+
+    public boolean isEmpty() {
+        return !blocked[0] && isLeaf(0);
+    }
+
+    public List<String> toCidrs() {
+        return toCidrs(0, 0);
+    }
+
+    /**
+     * Lists, in address order, the blocked CIDRs inside the given prefix. A blocked
+     * prefix wider than the requested one is reported clipped to it.
+     */
+    public List<String> toCidrs(int address, int prefixLength) {
+        List<String> cidrs = new ArrayList<>();
+        int node = 0;
+        for (int depth = 0; depth < prefixLength; depth++) {
+            if (blocked[node]) {
+                cidrs.add(formatCidr(address & mask(prefixLength), prefixLength));
+                return cidrs;
+            }
+            node = child(node, bit(address, depth));
+            if (node == NONE) {
+                return cidrs;
+            }
+        }
+        collect(node, prefixLength == 0 ? 0 : address & mask(prefixLength), prefixLength, cidrs);
+        return cidrs;
+    }
+
+    private void collect(int node, int prefix, int depth, List<String> cidrs) {
+        if (blocked[node]) {
+            cidrs.add(formatCidr(prefix, depth));
+            return;
+        }
+        if (zero[node] != NONE) {
+            collect(zero[node], prefix, depth + 1, cidrs);
+        }
+        if (one[node] != NONE) {
+            collect(one[node], prefix | (1 << (31 - depth)), depth + 1, cidrs);
+        }
+    }
+
+    private int allocate(boolean isBlocked) {
+        int node;
+        if (freeHead != NONE) {
+            node = freeHead;
+            freeHead = zero[node];
+        } else {
+            if (nextNode == zero.length) {
+                int capacity = zero.length * 2;
+                zero = Arrays.copyOf(zero, capacity);
+                one = Arrays.copyOf(one, capacity);
+                blocked = Arrays.copyOf(blocked, capacity);
+            }
+            node = nextNode++;
+        }
+        zero[node] = NONE;
+        one[node] = NONE;
+        blocked[node] = isBlocked;
+        return node;
+    }
+
+    private void releaseChildren(int node) {
+        if (zero[node] != NONE) {
+            releaseSubtree(zero[node]);
+            zero[node] = NONE;
+        }
+        if (one[node] != NONE) {
+            releaseSubtree(one[node]);
+            one[node] = NONE;
+        }
+    }
+
+    private void releaseSubtree(int node) {
+        releaseChildren(node);
+        release(node);
+    }
+
+    private void release(int node) {
+        blocked[node] = false;
+        one[node] = NONE;
+        zero[node] = freeHead;
+        freeHead = node;
+    }
+
+    private boolean isLeaf(int node) {
+        return zero[node] == NONE && one[node] == NONE;
+    }
+
+    private int child(int node, int bit) {
+        return bit == 0 ? zero[node] : one[node];
+    }
+
+    private void setChild(int node, int bit, int child) {
+        if (bit == 0) {
+            zero[node] = child;
+        } else {
+            one[node] = child;
+        }
+    }
+
+    private static int bit(int address, int depth) {
+        return (address >>> (31 - depth)) & 1;
+    }
+
+    private static int mask(int prefixLength) {
+        return prefixLength == 0 ? 0 : -1 << (32 - prefixLength);
+    }
+
+    /**
+     * Parses a dotted-quad IPv4 address without allocating or touching DNS.
+     * Returns -1 for anything else, including IPv6 literals.
+     */
+    public static long parseAddress(CharSequence value) {
+        if (value == null) {
+            return -1;
+        }
+        long address = 0;
+        int octet = -1;
+        int octets = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = (octet < 0 ? 0 : octet * 10) + (c - '0');
+                if (octet > 255) {
+                    return -1;
+                }
+            } else if (c == '.' && octet >= 0 && octets < 3) {
+                address = (address << 8) | octet;
+                octet = -1;
+                octets++;
+            } else {
+                return -1;
+            }
+        }
+        if (octet < 0 || octets != 3) {
+            return -1;
+        }
+        return (address << 8) | octet;
+    }
+
+    /**
+     * Parses "a.b.c.d/n" (or a bare address, taken as /32) into {address, prefixLength},
+     * with host bits cleared.
+     */
+    public static int[] parseCidr(String cidr) {
+        String value = cidr == null ? "" : cidr.trim();
+        int slash = value.indexOf('/');
+        int prefixLength = 32;
+        if (slash >= 0) {
+            try {
+                prefixLength = Integer.parseInt(value.substring(slash + 1));
+            } catch (NumberFormatException e) {
+                prefixLength = -1;
+            }
+            value = value.substring(0, slash);
+        }
+        long address = parseAddress(value);
+        if (address < 0 || prefixLength < 0 || prefixLength > 32) {
+            throw new IllegalArgumentException("Invalid IPv4 CIDR: " + cidr);
+        }
+        return new int[] {(int) address & mask(prefixLength), prefixLength};
+    }
+
+    public static String formatCidr(int address, int prefixLength) {
+        return ((address >>> 24) & 0xFF) + "." + ((address >>> 16) & 0xFF) + "."
+            + ((address >>> 8) & 0xFF) + "." + (address & 0xFF) + "/" + prefixLength;
+    }
+}
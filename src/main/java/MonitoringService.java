@@ -6,11 +6,14 @@ package com.cloudnative.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.time.Instant;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -20,7 +23,14 @@ public class MonitoringService {
     private static final Logger performanceLogger = LoggerFactory.getLogger("PERFORMANCE");
     private final ObjectMapper objectMapper = new ObjectMapper();
     
+    @Autowired(required = false)
+    private List<SecurityEventListener> securityEventListeners = Collections.emptyList();
+    
     public void logSecurityEvent(String eventType, String userId, String details) {
+        logSecurityEvent(eventType, userId, details, null);
+    }
+    
+    public void logSecurityEvent(String eventType, String userId, String details, String sourceIp) {
         try {
             Map<String, Object> securityEvent = new HashMap<>();
             securityEvent.put("timestamp", Instant.now().toString());
@@ -29,6 +39,9 @@ public class MonitoringService {
             securityEvent.put("details", details);
             securityEvent.put("severity", "HIGH");
             securityEvent.put("source", "cloud-native-app");
+            if (sourceIp != null) {
+                securityEvent.put("sourceIp", sourceIp);
+            }
             
             MDC.put("eventType", eventType);
             MDC.put("userId", userId);
@@ -36,9 +49,11 @@ public class MonitoringService {
             securityLogger.warn("Security Event: {}", objectMapper.writeValueAsString(securityEvent));
             
             // Trigger alert for critical events
-            if (isCriticalSecurityEvent(eventType)) {
+            boolean critical = isCriticalSecurityEvent(eventType);
+            if (critical) {
                 triggerSecurityAlert(securityEvent);
             }
+            notifySecurityEventListeners(eventType, userId, sourceIp, critical);
         } catch (Exception e) {
             logger.error("Failed to log security event", e);
         } finally {
@@ -92,6 +107,16 @@ public class MonitoringService {
                eventType.equals("BRUTE_FORCE_ATTACK");
     }
     
+    private void notifySecurityEventListeners(String eventType, String userId, String sourceIp, boolean critical) {
+        for (SecurityEventListener listener : securityEventListeners) {
+            try {
+                listener.onSecurityEvent(eventType, userId, sourceIp, critical);
+            } catch (Exception e) {
+                logger.error("Security event listener failed", e);
+            }
+        }
+    }
+    
     private void triggerSecurityAlert(Map<String, Object> event) {
         logger.error("CRITICAL SECURITY ALERT: {}", event);
         // In production, this would integrate with notification systems
@@ -0,0 +1,8 @@
+package com.cloudnative.service;
+
+/**
+ * Receives security events as they are logged by {@link MonitoringService}.
+ */
+public interface SecurityEventListener {
+    void onSecurityEvent(String eventType, String userId, String sourceIp, boolean critical);
+}
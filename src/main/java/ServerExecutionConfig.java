@@ -0,0 +1,38 @@
+package com.cloudnative;
+
+import org.apache.coyote.AbstractProtocol;
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Selects how Tomcat runs request handling. In the default "platform" mode requests use
+ * Tomcat's bounded worker pool; in "virtual" mode each request, and every blocking SDK
+ * call it makes, runs on its own virtual thread.
+ */
+@Configuration
+public class ServerExecutionConfig {
+    private static final Logger logger = LoggerFactory.getLogger(ServerExecutionConfig.class);
+
+    @Bean
+    @ConditionalOnProperty(name = "server.execution-mode", havingValue = "virtual")
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadExecutorCustomizer(
+            @Value("${server.virtual-threads.max-connections:50000}") int maxConnections) {
+        return protocolHandler -> {
+            if (!VirtualThreads.isSupported()) {
+                logger.warn("Virtual execution mode requested but not supported by this JVM, using platform threads");
+                return;
+            }
+            protocolHandler.setExecutor(VirtualThreads.newPerTaskExecutor());
+            if (protocolHandler instanceof AbstractProtocol) {
+                ((AbstractProtocol<?>) protocolHandler).setMaxConnections(maxConnections);
+            }
+            logger.info("Request handling configured to run on virtual threads, max connections {}", maxConnections);
+        };
+    }
+}
@@ -0,0 +1,47 @@
+package com.cloudnative;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Reflective access to virtual threads, so the build can keep targeting Java 11 while
+ * the virtual execution mode lights up when running on Java 21 or later.
+ */
+final class VirtualThreads {
+    private static final ThreadFactory FACTORY = lookupFactory();
+
+    private VirtualThreads() {
+    }
+
+    static boolean isSupported() {
+        return FACTORY != null;
+    }
+
+    /**
+     * Returns an executor that starts a new virtual thread per task.
+     */
+    static ExecutorService newPerTaskExecutor() {
+        if (FACTORY == null) {
+            throw new IllegalStateException("Virtual threads require Java 21 or later");
+        }
+        try {
+            Method method = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) method.invoke(null, FACTORY);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create virtual thread executor", e);
+        }
+    }
+
+    private static ThreadFactory lookupFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "virtual-", 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
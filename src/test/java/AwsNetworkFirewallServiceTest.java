@@ -0,0 +1,141 @@
+package com.cloudnative.service;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.networkfirewall.NetworkFirewallClient;
+import software.amazon.awssdk.services.networkfirewall.model.CreateRuleGroupRequest;
+import software.amazon.awssdk.services.networkfirewall.model.CreateRuleGroupResponse;
+import software.amazon.awssdk.services.networkfirewall.model.DescribeRuleGroupRequest;
+import software.amazon.awssdk.services.networkfirewall.model.DescribeRuleGroupResponse;
+import software.amazon.awssdk.services.networkfirewall.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.networkfirewall.model.RuleGroup;
+import software.amazon.awssdk.services.networkfirewall.model.UpdateRuleGroupRequest;
+import software.amazon.awssdk.services.networkfirewall.model.UpdateRuleGroupResponse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AwsNetworkFirewallServiceTest {
+    private static final String NEVER_BLOCK = "127.0.0.0/8,10.0.0.0/8";
+    private static final long TTL_MS = 3600000;
+
+    @Test
+    void autoBlocksSurviveRestartWhenFoldedIntoWiderPrefix() {
+        FakeNetworkFirewallClient client = new FakeNetworkFirewallClient();
+        AwsNetworkFirewallService before = new AwsNetworkFirewallService(client, NEVER_BLOCK, TTL_MS, 16);
+        for (String ip : Arrays.asList("8.8.8.4", "8.8.8.5", "8.8.8.6", "8.8.8.7")) {
+            before.onSecurityEvent("SQL_INJECTION_ATTEMPT", "user", ip, true);
+        }
+        before.blockAll(Collections.singletonList("203.0.113.0/24"), "10.0.0.1");
+        before.pushRuleGroups();
+        assertEquals(Collections.singletonList("8.8.8.4/30"), client.ipSet(0, "AUTO_BLOCKED_NET"));
+        assertEquals(Collections.singletonList("203.0.113.0/24"), client.ipSet(3, "BLOCKED_NET"));
+
+        AwsNetworkFirewallService after = new AwsNetworkFirewallService(client, NEVER_BLOCK, TTL_MS, 16);
+        int updates = client.updates;
+        after.pushRuleGroups();
+        after.publish();
+
+        assertEquals(updates, client.updates);
+        assertTrue(after.isBlocked("8.8.8.5"));
+        assertTrue(after.isBlocked("203.0.113.9"));
+        assertFalse(after.isBlocked("8.8.8.8"));
+
+        // Each restored address keeps its own entry, so one can be lifted on its own
+        after.unblockAll(Collections.singletonList("8.8.8.5"));
+        after.pushRuleGroups();
+        assertEquals(Arrays.asList("8.8.8.4/32", "8.8.8.6/31"), client.ipSet(0, "AUTO_BLOCKED_NET"));
+        assertEquals(Collections.singletonList("203.0.113.0/24"), client.ipSet(3, "BLOCKED_NET"));
+    }
+
+    @Test
+    void restoredAutoBlocksExpire() {
+        FakeNetworkFirewallClient client = new FakeNetworkFirewallClient();
+        AwsNetworkFirewallService before = new AwsNetworkFirewallService(client, NEVER_BLOCK, TTL_MS, 16);
+        before.onSecurityEvent("SQL_INJECTION_ATTEMPT", "user", "8.8.8.4", true);
+        before.onSecurityEvent("SQL_INJECTION_ATTEMPT", "user", "8.8.8.5", true);
+        before.pushRuleGroups();
+
+        AwsNetworkFirewallService after = new AwsNetworkFirewallService(client, NEVER_BLOCK, 0, 16);
+        after.pushRuleGroups();
+        after.publish();
+        after.pushRuleGroups();
+
+        assertFalse(after.isBlocked("8.8.8.4"));
+        assertEquals(Collections.emptyList(), client.ipSet(0, "AUTO_BLOCKED_NET"));
+    }
+
+    @Test
+    void nothingIsPushedUntilExistingRuleGroupsLoad() {
+        FakeNetworkFirewallClient client = new FakeNetworkFirewallClient();
+        AwsNetworkFirewallService service = new AwsNetworkFirewallService(client, NEVER_BLOCK, TTL_MS, 16);
+        service.blockAll(Collections.singletonList("203.0.113.0/24"), "10.0.0.1");
+
+        client.failDescribe = true;
+        service.pushRuleGroups();
+        assertEquals(0, client.updates);
+
+        client.failDescribe = false;
+        service.pushRuleGroups();
+        assertEquals(Collections.singletonList("203.0.113.0/24"), client.ipSet(3, "BLOCKED_NET"));
+    }
+
+    /**
+     * Keeps rule groups in memory, enough for the describe/create/update cycle the
+     * service drives.
+     */
+    private static final class FakeNetworkFirewallClient implements NetworkFirewallClient {
+        private final Map<String, RuleGroup> ruleGroups = new HashMap<>();
+        private int updates;
+        private boolean failDescribe;
+
+        List<String> ipSet(int shard, String name) {
+            List<String> cidrs = new ArrayList<>(ruleGroups.get("cloud-native-blocklist-" + shard)
+                .ruleVariables().ipSets().get(name).definition());
+            cidrs.remove("255.255.255.255/32");
+            return cidrs;
+        }
+
+        @Override
+        public DescribeRuleGroupResponse describeRuleGroup(DescribeRuleGroupRequest request) {
+            if (failDescribe) {
+                throw new IllegalStateException("describe unavailable");
+            }
+            RuleGroup ruleGroup = ruleGroups.get(request.ruleGroupName());
+            if (ruleGroup == null) {
+                throw ResourceNotFoundException.builder().message(request.ruleGroupName()).build();
+            }
+            return DescribeRuleGroupResponse.builder().ruleGroup(ruleGroup).updateToken("token").build();
+        }
+
+        @Override
+        public CreateRuleGroupResponse createRuleGroup(CreateRuleGroupRequest request) {
+            ruleGroups.put(request.ruleGroupName(), request.ruleGroup());
+            updates++;
+            return CreateRuleGroupResponse.builder().build();
+        }
+
+        @Override
+        public UpdateRuleGroupResponse updateRuleGroup(UpdateRuleGroupRequest request) {
+            ruleGroups.put(request.ruleGroupName(), request.ruleGroup());
+            updates++;
+            return UpdateRuleGroupResponse.builder().build();
+        }
+
+        @Override
+        public String serviceName() {
+            return "network-firewall";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.cloudnative.service;
+
+import com.cloudnative.service.AzureResourceService.BulkOperationResult;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AzureResourceServiceTest {
+    private final AzureResourceService service = new AzureResourceService();
+
+    @Test
+    void everyRequestedNameGetsAResult() {
+        List<BulkOperationResult> results = service.runBulk("delete",
+            Arrays.asList("rg-a", "", null, "RG-A", "rg-b", "rg-c"),
+            name -> name.equals("rg-c") ? Mono.error(new IllegalStateException("conflict")) : Mono.empty())
+            .collectList().block();
+
+        assertEquals(6, results.size());
+        Map<String, String> errors = results.stream()
+            .filter(result -> !result.isSuccess())
+            .collect(Collectors.toMap(result -> String.valueOf(result.getResourceGroup()), BulkOperationResult::getError));
+        assertEquals("Resource group name is blank", errors.get(""));
+        assertEquals("Resource group name is blank", errors.get("null"));
+        assertEquals("Duplicate resource group name", errors.get("RG-A"));
+        assertEquals("conflict", errors.get("rg-c"));
+        assertEquals(4, errors.size());
+    }
+
+    @Test
+    void concurrencyIsBoundedAcrossJobs() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        Function<String, Mono<Void>> slowAction = name -> Mono.defer(() -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            return Mono.delay(Duration.ofMillis(20)).doOnTerminate(inFlight::decrementAndGet).then();
+        });
+
+        List<Flux<BulkOperationResult>> jobs = new ArrayList<>();
+        for (int job = 0; job < 4; job++) {
+            List<String> names = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                names.add("rg-" + job + "-" + i);
+            }
+            jobs.add(service.runBulk("create", names, slowAction));
+        }
+        List<BulkOperationResult> results = Flux.merge(jobs).collectList().block(Duration.ofSeconds(30));
+
+        assertEquals(160, results.size());
+        assertTrue(results.stream().allMatch(BulkOperationResult::isSuccess));
+        assertTrue(maxInFlight.get() <= 16, "max in flight was " + maxInFlight.get());
+    }
+}
@@ -0,0 +1,93 @@
+package com.cloudnative.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class DependencyHealthServiceTest {
+    private final AwsKmsService kms = mock(AwsKmsService.class);
+    private final AwsOrganizationService organizations = mock(AwsOrganizationService.class);
+    private final AwsWafService waf = mock(AwsWafService.class);
+    private final AzureResourceService azure = mock(AzureResourceService.class);
+    private DependencyHealthService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.cleanup();
+        }
+    }
+
+    @Test
+    void hungProbeIsNotResubmittedUntilItReturns() throws Exception {
+        // Ignores interrupts, like a thread stuck in a socket read
+        AtomicBoolean release = new AtomicBoolean();
+        AtomicInteger calls = new AtomicInteger();
+        doAnswer(invocation -> {
+            calls.incrementAndGet();
+            while (!release.get()) {
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException ignored) {
+                    // keep hanging
+                }
+            }
+            return null;
+        }).when(kms).checkHealth();
+
+        service = start(20, 20, "any-down");
+        awaitTrue(() -> calls.get() == 1 && service.healthResponse(false).getStatusCodeValue() == 503);
+        Thread.sleep(300);
+
+        assertEquals(1, calls.get());
+        assertTrue(body(service.healthResponse(true)).contains("\"kms\":{\"status\":\"DOWN\""));
+
+        release.set(true);
+        awaitTrue(() -> calls.get() > 1 && service.healthResponse(false).getStatusCodeValue() == 200);
+    }
+
+    @Test
+    void detailIsOnlyInDetailedResponseAndNeverPolicyKeepsOk() throws Exception {
+        doAnswer(invocation -> {
+            throw new IllegalStateException("AWS KMS client not initialized");
+        }).when(kms).checkHealth();
+
+        service = start(20, 1000, "never");
+        awaitTrue(() -> body(service.healthResponse(true)).contains("\"waf\":{\"status\":\"UP\"")
+            && body(service.healthResponse(true)).contains("\"kms\":{\"status\":\"DOWN\""));
+
+        assertEquals(200, service.healthResponse(false).getStatusCodeValue());
+        assertTrue(body(service.healthResponse(false)).contains("DEGRADED"));
+        assertFalse(body(service.healthResponse(false)).contains("dependencies"));
+    }
+
+    private DependencyHealthService start(long intervalMs, long timeoutMs, String failOn) {
+        DependencyHealthService health = new DependencyHealthService(kms, organizations, waf, azure,
+            mock(MonitoringService.class), intervalMs, timeoutMs, failOn);
+        health.init();
+        return health;
+    }
+
+    private static String body(ResponseEntity<byte[]> response) {
+        return new String(response.getBody(), StandardCharsets.UTF_8);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met within 5s");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.cloudnative;
+
+import com.cloudnative.service.DownstreamCallLimiter;
+import com.cloudnative.service.DownstreamSaturatedException;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the platform worker pool against virtual-thread execution for requests that
+ * block on a slow downstream call, using the limits shipped in application.yml.
+ *
+ * Usage: ExecutionModeBenchmark [requests] [downstreamLatencyMs] [downstream]
+ */
+public final class ExecutionModeBenchmark {
+    private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private static final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    private ExecutionModeBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        long latencyMs = args.length > 1 ? Long.parseLong(args[1]) : 500;
+        String downstream = args.length > 2 ? args[2] : "kms";
+
+        StandardEnvironment platform = shippedEnvironment("platform");
+        StandardEnvironment virtual = shippedEnvironment("virtual");
+        int platformThreads = platform.getProperty("server.tomcat.threads.max", Integer.class, 200);
+        DownstreamCallLimiter platformLimiter = new DownstreamCallLimiter(platform);
+        DownstreamCallLimiter virtualLimiter = new DownstreamCallLimiter(virtual);
+
+        System.out.printf("requests=%d latency=%dms downstream=%s platformThreads=%d virtualCap=%d acquireTimeout=%sms%n",
+            requests, latencyMs, downstream, platformThreads, virtualLimiter.maxConcurrentCalls(downstream),
+            virtual.getProperty("downstream.acquire-timeout-ms"));
+
+        run("platform", Executors.newFixedThreadPool(platformThreads), platformLimiter, downstream, requests, latencyMs);
+
+        if (VirtualThreads.isSupported()) {
+            run("virtual", VirtualThreads.newPerTaskExecutor(), virtualLimiter, downstream, requests, latencyMs);
+        } else {
+            System.out.println("virtual: skipped, requires Java 21 or later");
+        }
+    }
+
+    private static StandardEnvironment shippedEnvironment(String executionMode) throws Exception {
+        StandardEnvironment environment = new StandardEnvironment();
+        for (PropertySource<?> source : new YamlPropertySourceLoader()
+                .load("application.yml", new ClassPathResource("application.yml"))) {
+            environment.getPropertySources().addLast(source);
+        }
+        environment.getPropertySources().addFirst(new MapPropertySource("benchmark",
+            Collections.singletonMap("server.execution-mode", executionMode)));
+        return environment;
+    }
+
+    private static void run(String mode, ExecutorService executor, DownstreamCallLimiter limiter,
+                            String downstream, int requests, long latencyMs) throws InterruptedException {
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        threads.resetPeakThreadCount();
+
+        long[] latencies = new long[requests];
+        AtomicInteger shed = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(requests);
+        long startTime = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            int request = i;
+            executor.execute(() -> {
+                try {
+                    limiter.run(downstream, () -> sleep(latencyMs));
+                } catch (DownstreamSaturatedException e) {
+                    shed.incrementAndGet();
+                } finally {
+                    latencies[request] = System.nanoTime() - startTime;
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsedNanos = System.nanoTime() - startTime;
+        long heapAfter = memory.getHeapMemoryUsage().getUsed();
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        Arrays.sort(latencies);
+        System.out.printf("%-8s elapsed=%6dms throughput=%8.0f req/s p50=%6dms p99=%6dms shed=%5d peakThreads=%5d heapGrowth=%5dMB%n",
+            mode,
+            TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+            requests / (elapsedNanos / 1e9),
+            TimeUnit.NANOSECONDS.toMillis(latencies[requests / 2]),
+            TimeUnit.NANOSECONDS.toMillis(latencies[(int) (requests * 0.99)]),
+            shed.get(),
+            threads.getPeakThreadCount(),
+            Math.max(0, heapAfter - heapBefore) / (1024 * 1024));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.cloudnative.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IpBlocklistTrieTest {
+
+    @Test
+    void addFoldsAdjacentAndCoveredPrefixes() {
+        IpBlocklistTrie trie = new IpBlocklistTrie();
+
+        assertTrue(add(trie, "10.0.0.0/25"));
+        assertTrue(add(trie, "10.0.0.128/25"));
+        assertTrue(add(trie, "10.0.1.0/24"));
+        assertFalse(add(trie, "10.0.0.5"));
+        assertFalse(add(trie, "10.0.0.0/23"));
+        assertTrue(add(trie, "192.168.1.1"));
+
+        assertEquals(Arrays.asList("10.0.0.0/23", "192.168.1.1/32"), trie.toCidrs());
+    }
+
+    @Test
+    void addingWiderPrefixDropsNarrowerOnes() {
+        IpBlocklistTrie trie = new IpBlocklistTrie();
+        add(trie, "10.1.2.3");
+        add(trie, "10.1.200.0/24");
+
+        assertTrue(add(trie, "10.1.0.0/16"));
+
+        assertEquals(Collections.singletonList("10.1.0.0/16"), trie.toCidrs());
+    }
+
+    @Test
+    void removeSplitsWiderPrefix() {
+        IpBlocklistTrie trie = new IpBlocklistTrie();
+        add(trie, "10.0.0.0/29");
+
+        assertTrue(remove(trie, "10.0.0.6"));
+
+        assertEquals(Arrays.asList("10.0.0.0/30", "10.0.0.4/31", "10.0.0.7/32"), trie.toCidrs());
+        assertFalse(contains(trie, "10.0.0.6"));
+        assertTrue(contains(trie, "10.0.0.7"));
+        assertFalse(remove(trie, "10.0.0.6"));
+    }
+
+    @Test
+    void reAddingRemovedAddressFoldsBackToOriginalPrefix() {
+        IpBlocklistTrie trie = new IpBlocklistTrie();
+        add(trie, "10.0.0.0/23");
+        remove(trie, "10.0.0.7");
+
+        add(trie, "10.0.0.7");
+
+        assertEquals(Collections.singletonList("10.0.0.0/23"), trie.toCidrs());
+    }
+
+    @Test
+    void removeClearsEverythingInsidePrefixAndPrunes() {
+        IpBlocklistTrie trie = new IpBlocklistTrie();
+        add(trie, "10.0.0.1");
+        add(trie, "10.200.0.0/16");
+        add(trie, "192.168.1.1");
+
+        assertTrue(remove(trie, "10.0.0.0/8"));
+        assertFalse(remove(trie, "10.0.0.0/8"));
+
+        assertEquals(Collections.singletonList("192.168.1.1/32"), trie.toCidrs());
+        assertTrue(remove(trie, "192.168.1.1"));
+        assertTrue(trie.isEmpty());
+    }
+
+    @Test
+    void removeOfUnblockedPrefixIsNoop() {
+        IpBlocklistTrie trie = new IpBlocklistTrie();
+        add(trie, "10.0.0.1");
+
+        assertFalse(remove(trie, "10.0.0.2"));
+        assertFalse(remove(trie, "11.0.0.0/8"));
+
+        assertEquals(Collections.singletonList("10.0.0.1/32"), trie.toCidrs());
+    }
+
+    @Test
+    void wholeAddressSpaceAtSlashZero() {
+        IpBlocklistTrie trie = new IpBlocklistTrie();
+        add(trie, "10.0.0.1");
+
+        assertTrue(add(trie, "0.0.0.0/0"));
+        assertFalse(add(trie, "1.2.3.4"));
+
+        assertEquals(Collections.singletonList("0.0.0.0/0"), trie.toCidrs());
+        assertTrue(contains(trie, "0.0.0.0"));
+        assertTrue(contains(trie, "255.255.255.255"));
+
+        assertTrue(remove(trie, "0.0.0.0/0"));
+        assertTrue(trie.isEmpty());
+        assertFalse(contains(trie, "10.0.0.1"));
+    }
+
+    @Test
+    void splittingSlashZeroDownToSlashThirtyTwo() {
+        IpBlocklistTrie trie = new IpBlocklistTrie();
+        add(trie, "0.0.0.0/0");
+
+        assertTrue(remove(trie, "0.0.0.0"));
+
+        List<String> cidrs = trie.toCidrs();
+        assertEquals(32, cidrs.size());
+        assertEquals("0.0.0.1/32", cidrs.get(0));
+        assertEquals("128.0.0.0/1", cidrs.get(31));
+        assertFalse(contains(trie, "0.0.0.0"));
+        assertTrue(contains(trie, "0.0.0.1"));
+        assertTrue(contains(trie, "255.255.255.255"));
+    }
+
+    @Test
+    void foldingAllTheWayUpToSlashZero() {
+        IpBlocklistTrie trie = new IpBlocklistTrie();
+
+        add(trie, "0.0.0.0/1");
+        add(trie, "128.0.0.0/1");
+
+        assertEquals(Collections.singletonList("0.0.0.0/0"), trie.toCidrs());
+    }
+
+    @Test
+    void addressesAtEitherEndOfTheRange() {
+        IpBlocklistTrie trie = new IpBlocklistTrie();
+        add(trie, "0.0.0.0");
+        add(trie, "255.255.255.255");
+
+        assertTrue(contains(trie, "0.0.0.0"));
+        assertTrue(contains(trie, "255.255.255.255"));
+        assertFalse(contains(trie, "0.0.0.1"));
+        assertFalse(contains(trie, "255.255.255.254"));
+        assertEquals(Arrays.asList("0.0.0.0/32", "255.255.255.255/32"), trie.toCidrs());
+    }
+
+    @Test
+    void shardViewClipsWiderPrefixes() {
+        IpBlocklistTrie trie = new IpBlocklistTrie();
+        add(trie, "0.0.0.0/1");
+        add(trie, "200.1.2.3");
+
+        assertEquals(Collections.singletonList("0.0.0.0/2"), trie.toCidrs(0x00000000, 2));
+        assertEquals(Collections.singletonList("64.0.0.0/2"), trie.toCidrs(0x40000000, 2));
+        assertEquals(Collections.emptyList(), trie.toCidrs(0x80000000, 2));
+        assertEquals(Collections.singletonList("200.1.2.3/32"), trie.toCidrs(0xC0000000, 2));
+    }
+
+    @Test
+    void shardViewIgnoresHostBitsAndHandlesEdges() {
+        IpBlocklistTrie trie = new IpBlocklistTrie();
+        add(trie, "10.0.0.0/8");
+
+        assertEquals(Collections.singletonList("10.1.0.0/16"), trie.toCidrs(0x0A01FFFF, 16));
+        assertEquals(Collections.singletonList("10.1.2.3/32"), trie.toCidrs(0x0A010203, 32));
+        assertEquals(Collections.singletonList("10.0.0.0/8"), trie.toCidrs(0, 0));
+        assertEquals(Collections.emptyList(), trie.toCidrs(0x0B000000, 32));
+    }
+
+    @Test
+    void intersectsCoveringAndCoveredPrefixes() {
+        IpBlocklistTrie trie = new IpBlocklistTrie();
+        add(trie, "10.0.0.0/8");
+        add(trie, "192.168.1.1");
+
+        int[] inside = IpBlocklistTrie.parseCidr("10.1.0.0/16");
+        int[] around = IpBlocklistTrie.parseCidr("192.168.0.0/16");
+        int[] outside = IpBlocklistTrie.parseCidr("11.0.0.0/8");
+        assertTrue(trie.intersects(inside[0], inside[1]));
+        assertTrue(trie.intersects(around[0], around[1]));
+        assertFalse(trie.intersects(outside[0], outside[1]));
+        assertTrue(trie.intersects(0, 0));
+        assertFalse(new IpBlocklistTrie().intersects(0, 0));
+    }
+
+    @Test
+    void copyIsIndependentOfOriginal() {
+        IpBlocklistTrie trie = new IpBlocklistTrie();
+        add(trie, "10.0.0.0/8");
+
+        IpBlocklistTrie copy = trie.copy();
+        remove(trie, "10.0.0.0/8");
+        add(copy, "11.0.0.0/8");
+
+        assertTrue(trie.isEmpty());
+        assertEquals(Collections.singletonList("10.0.0.0/7"), copy.toCidrs());
+    }
+
+    @Test
+    void matchesBruteForceModelUnderRandomChurn() {
+        // Model the /16 below 10.20.0.0 as a bit set and compare after every operation,
+        // exercising free-list reuse, folding and splitting at every depth
+        Random random = new Random(42);
+        IpBlocklistTrie trie = new IpBlocklistTrie();
+        BitSet model = new BitSet(1 << 16);
+        int base = 0x0A140000;
+
+        for (int i = 0; i < 5000; i++) {
+            int prefixLength = 16 + random.nextInt(17);
+            int size = 1 << (32 - prefixLength);
+            int offset = random.nextInt(1 << 16) & -size;
+            boolean covered = model.get(offset, offset + size).cardinality() == size;
+            boolean touched = !model.get(offset, offset + size).isEmpty();
+
+            if (random.nextBoolean()) {
+                assertEquals(!covered, trie.add(base + offset, prefixLength));
+                model.set(offset, offset + size);
+            } else {
+                assertEquals(touched, trie.remove(base + offset, prefixLength));
+                model.clear(offset, offset + size);
+            }
+
+            for (int probe = 0; probe < 32; probe++) {
+                int address = random.nextInt(1 << 16);
+                assertEquals(model.get(address), trie.contains(base + address));
+            }
+        }
+
+        IpBlocklistTrie rebuilt = new IpBlocklistTrie();
+        int covered = 0;
+        for (String cidr : trie.toCidrs()) {
+            int[] prefix = IpBlocklistTrie.parseCidr(cidr);
+            assertTrue(rebuilt.add(prefix[0], prefix[1]), "toCidrs is not minimal: " + cidr);
+            covered += 1 << (32 - prefix[1]);
+        }
+        assertEquals(model.cardinality(), covered);
+        assertEquals(trie.toCidrs(), rebuilt.toCidrs());
+    }
+
+    @Test
+    void parsesAddressesAndCidrs() {
+        assertEquals(0x0A000001L, IpBlocklistTrie.parseAddress("10.0.0.1"));
+        assertEquals(0xFFFFFFFFL, IpBlocklistTrie.parseAddress("255.255.255.255"));
+        assertEquals(-1, IpBlocklistTrie.parseAddress("::1"));
+        assertEquals(-1, IpBlocklistTrie.parseAddress("1.2.3"));
+        assertEquals(-1, IpBlocklistTrie.parseAddress("1.2.3.256"));
+        assertEquals(-1, IpBlocklistTrie.parseAddress("1..2.3"));
+        assertEquals(-1, IpBlocklistTrie.parseAddress(null));
+
+        assertEquals("10.1.0.0/16", format(IpBlocklistTrie.parseCidr("10.1.2.3/16")));
+        assertEquals("10.1.2.3/32", format(IpBlocklistTrie.parseCidr(" 10.1.2.3 ")));
+        assertEquals("0.0.0.0/0", format(IpBlocklistTrie.parseCidr("1.2.3.4/0")));
+        assertThrows(IllegalArgumentException.class, () -> IpBlocklistTrie.parseCidr("10.0.0.0/33"));
+        assertThrows(IllegalArgumentException.class, () -> IpBlocklistTrie.parseCidr("10.0.0.0/x"));
+        assertThrows(IllegalArgumentException.class, () -> IpBlocklistTrie.parseCidr(null));
+    }
+
+    private static boolean add(IpBlocklistTrie trie, String cidr) {
+        int[] prefix = IpBlocklistTrie.parseCidr(cidr);
+        return trie.add(prefix[0], prefix[1]);
+    }
+
+    private static boolean remove(IpBlocklistTrie trie, String cidr) {
+        int[] prefix = IpBlocklistTrie.parseCidr(cidr);
+        return trie.remove(prefix[0], prefix[1]);
+    }
+
+    private static boolean contains(IpBlocklistTrie trie, String address) {
+        return trie.contains((int) IpBlocklistTrie.parseAddress(address));
+    }
+
+    private static String format(int[] prefix) {
+        return IpBlocklistTrie.formatCidr(prefix[0], prefix[1]);
+    }
+}